@@ -5,9 +5,14 @@ Run:  python mock_store.py
 """
 
 from flask import Flask, jsonify, send_from_directory, request
-import hashlib, os, pathlib
+import gzip, hashlib, json, os, pathlib
 import re
 
+try:                                   # optional: pip install zstandard
+    import zstandard
+except ImportError:
+    zstandard = None
+
 _ver_re = re.compile(r'_(\d+\.\d+\.\d+)\.zip$')  # e.g. BackupAgent_1.2.3.zip
 def _version(fname: str) -> str:
     m = _ver_re.search(fname)
@@ -20,6 +25,21 @@ DATA_DIR = pathlib.Path(__file__).parent / "data"
 def sha256sum(path: pathlib.Path) -> str:
     return hashlib.sha256(path.read_bytes()).hexdigest()
 
+# content-coding → suffix of a precompressed sibling (foo.zip.zst, foo.zip.gz)
+_SUFFIX = {"zstd": ".zst", "gzip": ".gz"}
+
+def _codings() -> list:
+    return ["zstd", "gzip"] if zstandard else ["gzip"]
+
+def _negotiate(available):
+    """Best coding the client accepts out of `available`, else None."""
+    return request.accept_encodings.best_match(available)
+
+def _compress(body: bytes, coding: str) -> bytes:
+    if coding == "zstd":
+        return zstandard.ZstdCompressor(level=10).compress(body)
+    return gzip.compress(body, compresslevel=6)
+
 # ── routes ───────────────────────────────────────────────────────────
 @app.route("/catalog")
 def catalog():
@@ -27,11 +47,33 @@ def catalog():
                 "sha256": sha256sum(f),
                 "version": _version(f.name)}
                for f in DATA_DIR.glob("*.zip")]
-    return jsonify(entries)                       # ← StoreClient.fetchCatalog()
+    coding = _negotiate(_codings())
+    if not coding:
+        resp = jsonify(entries)                   # ← StoreClient.fetchCatalog()
+        resp.headers["Vary"] = "Accept-Encoding"
+        return resp
+
+    body = _compress(json.dumps(entries).encode(), coding)
+    return app.response_class(body, mimetype="application/json",
+                              headers={"Content-Encoding": coding,
+                                       "Vary": "Accept-Encoding"})
 
 @app.route("/packages/<fname>")
 def pkg(fname):
-    return send_from_directory(DATA_DIR, fname, as_attachment=True)
+    # prefer a precompressed sibling; sha256 in /catalog is of the plain file
+    ready = [c for c in _codings() if (DATA_DIR / (fname + _SUFFIX[c])).is_file()]
+    coding = _negotiate(ready)
+    if not coding:
+        resp = send_from_directory(DATA_DIR, fname, as_attachment=True)
+        resp.headers["Vary"] = "Accept-Encoding"
+        return resp
+
+    resp = send_from_directory(DATA_DIR, fname + _SUFFIX[coding],
+                               as_attachment=True, download_name=fname,
+                               mimetype="application/zip")
+    resp.headers["Content-Encoding"] = coding
+    resp.headers["Vary"] = "Accept-Encoding"
+    return resp
 
 # NEW: simple upload endpoint
 @app.route("/upload", methods=["POST"])
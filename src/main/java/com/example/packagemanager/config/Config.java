@@ -24,6 +24,26 @@ public class Config {
     return Long.parseLong(props.getProperty("poll.interval.ms", "300000"));
   }
 
+  /** Parallel download/upload workers per sync cycle. */
+  public static int syncWorkers() {
+    return Integer.parseInt(props.getProperty("sync.workers", "4"));
+  }
+
+  /** How often a running cycle re-polls the DB for newly pending rows. */
+  public static long syncRefreshMs() {
+    return Long.parseLong(props.getProperty("sync.refresh.ms", "30000"));
+  }
+
+  /** Waiting time one priority point is worth when ordering rows. */
+  public static long syncAgingMinutesPerPriority() {
+    return Long.parseLong(props.getProperty("sync.aging.minutes", "15"));
+  }
+
+  /** Rows whose syncDeadline is this close (or past) jump ahead of the aged order. */
+  public static long syncDeadlineLeadMinutes() {
+    return Long.parseLong(props.getProperty("sync.deadline.lead.minutes", "60"));
+  }
+
   public static String dbUrl() {
     return props.getProperty("db.url");
   }
@@ -43,7 +43,10 @@ public final class DbAccess {
                 packageLocation,
                 syncStatus,
                 lastSyncTime,
-                modifiedTime
+                modifiedTime,
+                COALESCE(packagePriority, 0) AS packagePriority,
+                COALESCE(clientPriority, 0)  AS clientPriority,
+                syncDeadline
           FROM  PackageSync
          WHERE  syncStatus <> 'SUCCESS'
         """;
@@ -64,7 +67,10 @@ public final class DbAccess {
             rs.getString("packageVersion"), // NEW
             rs.getString("syncStatus"),
             rs.getObject("lastSyncTime", OffsetDateTime.class),
-            rs.getObject("modifiedTime", OffsetDateTime.class)));
+            rs.getObject("modifiedTime", OffsetDateTime.class),
+            rs.getInt("packagePriority"),
+            rs.getInt("clientPriority"),
+            rs.getObject("syncDeadline", OffsetDateTime.class)));
       }
       return list;
     }
@@ -13,6 +13,9 @@ public final class PackageSyncRow {
   private final SyncStatus syncStatus;
   private final OffsetDateTime lastSyncTime;
   private final OffsetDateTime modifiedTime;
+  private final int packagePriority;
+  private final int clientPriority;
+  private final OffsetDateTime syncDeadline;
 
   /* Constructor used by code (enum form) */
   public PackageSyncRow(String clientId,
@@ -22,7 +25,10 @@ public final class PackageSyncRow {
       String packageVersion,
       SyncStatus syncStatus,
       OffsetDateTime lastSyncTime,
-      OffsetDateTime modifiedTime) {
+      OffsetDateTime modifiedTime,
+      int packagePriority,
+      int clientPriority,
+      OffsetDateTime syncDeadline) {
 
     this.clientId = clientId;
     this.packageName = packageName;
@@ -32,6 +38,9 @@ public final class PackageSyncRow {
     this.syncStatus = syncStatus;
     this.lastSyncTime = lastSyncTime;
     this.modifiedTime = modifiedTime;
+    this.packagePriority = packagePriority;
+    this.clientPriority = clientPriority;
+    this.syncDeadline = syncDeadline;
   }
 
   /* Overload that accepts raw text from the DB */
@@ -42,7 +51,10 @@ public final class PackageSyncRow {
       String packageVersion,
       String syncStatusText,
       OffsetDateTime lastSyncTime,
-      OffsetDateTime modifiedTime) {
+      OffsetDateTime modifiedTime,
+      int packagePriority,
+      int clientPriority,
+      OffsetDateTime syncDeadline) {
 
     this(clientId,
         packageName,
@@ -51,7 +63,10 @@ public final class PackageSyncRow {
         packageVersion,
         SyncStatus.valueOf(syncStatusText.toUpperCase()),
         lastSyncTime,
-        modifiedTime);
+        modifiedTime,
+        packagePriority,
+        clientPriority,
+        syncDeadline);
   }
 
   /* —— getters —— */
@@ -87,12 +102,29 @@ public final class PackageSyncRow {
     return modifiedTime;
   }
 
+  /** Higher = more urgent; 0 when unset. */
+  public int packagePriority() {
+    return packagePriority;
+  }
+
+  /** Higher = more urgent; 0 when unset. */
+  public int clientPriority() {
+    return clientPriority;
+  }
+
+  /** SLA deadline for this row, or null if none. */
+  public OffsetDateTime syncDeadline() {
+    return syncDeadline;
+  }
+
   @Override
   public String toString() {
     return "PackageSyncRow[" +
         "clientId=" + clientId +
         ", packageName=" + packageName +
         ", version=" + packageVersion +
-        ", syncStatus=" + syncStatus + ']';
+        ", syncStatus=" + syncStatus +
+        ", priority=" + packagePriority + '/' + clientPriority +
+        ", deadline=" + syncDeadline + ']';
   }
 }
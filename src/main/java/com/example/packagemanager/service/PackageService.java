@@ -13,6 +13,7 @@ import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 public final class PackageService {
 
@@ -22,44 +23,59 @@ public final class PackageService {
   public static void downloadAndUpload(List<PackageSyncRow> rows) throws Exception {
 
     /* 1️⃣ Fetch latest catalog from store */
-    Map<String, StoreClient.CatalogEntry> catalog = StoreClient.fetchCatalog(Config.storeBaseUrl());
+    AtomicReference<Map<String, StoreClient.CatalogEntry>> catalog = new AtomicReference<>(
+        StoreClient.fetchCatalog(Config.storeBaseUrl()));
+
+    /*
+     * Most urgent rows first, spread across the worker pool. Rows found
+     * mid-cycle may be pending because of a fresh store publish, so the
+     * catalog is re-fetched (after the DB read) before they are queued.
+     */
+    SyncScheduler.runCycle(rows,
+        fresh -> catalog.set(StoreClient.fetchCatalog(Config.storeBaseUrl())),
+        row -> syncRow(row, catalog.get()));
+  }
 
-    for (PackageSyncRow row : rows) {
+  /* --------------------------------------------------------------- */
+  private static void syncRow(PackageSyncRow row,
+      Map<String, StoreClient.CatalogEntry> catalog) throws Exception {
 
-      StoreClient.CatalogEntry entry = catalog.get(row.packageName());
+    StoreClient.CatalogEntry entry = catalog.get(row.packageName());
 
-      if (entry == null) { // package removed from store
-        log.warn("⚠️  {} not in catalog – skipping", row.packageName());
-        continue;
-      }
+    if (entry == null) { // package removed from store
+      log.warn("⚠️  {} not in catalog – skipping", row.packageName());
+      return;
+    }
 
-      /* Already up-to-date? Compare VERSION first (fast path) */
-      if (entry.version().equals(row.packageVersion())) {
-        DbAccess.markSuccess(row.clientId(),
-            row.packageName(),
-            entry.sha256(),
-            entry.version());
-        continue;
-      }
+    /* Already up-to-date? Compare VERSION first (fast path) */
+    if (entry.version().equals(row.packageVersion())) {
+      DbAccess.markSuccess(row.clientId(),
+          row.packageName(),
+          entry.sha256(),
+          entry.version());
+      return;
+    }
 
-      /* 2️⃣ Download */
-      log.info("⬇️  Downloading {} → {}", row.packageName(), entry.version());
-      Path localFile = downloadFile(row.packageName());
+    /* 2️⃣ Download – cache copy is scratch space, removed whatever happens */
+    log.info("⬇️  Downloading {} → {} for {}", row.packageName(), entry.version(), row.clientId());
+    Path cachePath = cachePath(row);
+    try {
+      StoreClient.DownloadedPackage download = StoreClient.downloadPackage(
+          Config.storeBaseUrl(), row.packageName(), cachePath);
 
-      /* Verify checksum */
-      String downloadedSha = ChecksumUtil.sha256(localFile);
+      /* Verify checksum (hashed while streaming to disk) */
+      String downloadedSha = download.sha256();
       if (!downloadedSha.equalsIgnoreCase(entry.sha256())) {
         log.error("❌ SHA mismatch – expected {}, got {}", entry.sha256(), downloadedSha);
         DbAccess.updateSyncStatus(row.clientId(), row.packageName(),
             SyncStatus.FAILED.name());
-        Files.deleteIfExists(localFile);
-        continue;
+        return;
       }
 
       /* 3️⃣ Upload (copy to target path) */
       log.info("⬆️  Uploading {}", row.packageName());
-      if (!uploadFile(localFile, row, entry.sha256()))
-        continue; // uploadFile already logged + marked FAILED
+      if (!uploadFile(download, row, entry.sha256()))
+        return; // uploadFile already logged + marked FAILED
 
       /* 4️⃣ Mark SUCCESS + store SHA-256 + version */
       DbAccess.markSuccess(row.clientId(),
@@ -67,18 +83,19 @@ public final class PackageService {
           downloadedSha,
           entry.version());
       log.info("✅ Marked {} v{} as SUCCESS", row.packageName(), entry.version());
+    } finally {
+      Files.deleteIfExists(cachePath); // also drops a partial download
     }
   }
 
   /* --------------------------------------------------------------- */
-  private static Path downloadFile(String packageName) throws Exception {
-    Path cachePath = Path.of("cache", packageName);
-    return StoreClient.downloadPackage(
-        Config.storeBaseUrl(), packageName, cachePath);
+  private static Path cachePath(PackageSyncRow row) {
+    /* per-client dir – workers may fetch the same package concurrently */
+    return Path.of("cache", row.clientId(), row.packageName());
   }
 
   /* --------------------------------------------------------------- */
-  private static boolean uploadFile(Path localZip,
+  private static boolean uploadFile(StoreClient.DownloadedPackage download,
       PackageSyncRow row,
       String expectedSha) throws Exception {
 
@@ -90,7 +107,7 @@ public final class PackageService {
 
     Path targetPath = Path.of(target);
     Files.createDirectories(targetPath.getParent());
-    Files.copy(localZip, targetPath, StandardCopyOption.REPLACE_EXISTING);
+    Files.copy(download.path(), targetPath, StandardCopyOption.REPLACE_EXISTING);
 
     String freshSha = ChecksumUtil.sha256(targetPath);
     if (!freshSha.equalsIgnoreCase(expectedSha)) {
@@ -100,7 +117,7 @@ public final class PackageService {
       return false;
     }
 
-    log.info("✅ Copied to {} ({} bytes)", targetPath, Files.size(targetPath));
+    log.info("✅ Copied to {} ({} bytes)", targetPath, download.bytes());
     return true;
   }
 
@@ -3,9 +3,13 @@ package com.example.packagemanager.service;
 import com.example.packagemanager.util.ChecksumUtil;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.util.Native;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
@@ -14,10 +18,15 @@ import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Thin HTTP client that talks to the (mock) store.
@@ -32,6 +41,14 @@ public final class StoreClient {
                         .connectTimeout(Duration.ofSeconds(10))
                         .build();
 
+        /** zstd-jni ships a native lib – only offer zstd if it loads on this host */
+        private static final boolean ZSTD_AVAILABLE = zstdAvailable();
+
+        /** content-codings we can decode, in order of preference */
+        private static final String ACCEPT_ENCODING = ZSTD_AVAILABLE
+                        ? "zstd, gzip;q=0.9, identity;q=0.5"
+                        : "gzip, identity;q=0.5";
+
         /*
          * ------------------------------------------------------------------ *
          * JSON → POJO representing one line of /catalog
@@ -42,6 +59,16 @@ public final class StoreClient {
                         String version) {
         }
 
+        /*
+         * ------------------------------------------------------------------ *
+         * Result of a download – SHA-256 is over the decoded bytes on disk
+         * ------------------------------------------------------------------
+         */
+        public record DownloadedPackage(Path path,
+                        String sha256,
+                        long bytes) {
+        }
+
         /*
          * ------------------------------------------------------------------ *
          * 1 · GET /catalog
@@ -52,15 +79,25 @@ public final class StoreClient {
                 HttpRequest req = HttpRequest.newBuilder()
                                 .uri(URI.create(baseUrl + "/catalog"))
                                 .timeout(Duration.ofSeconds(10))
+                                .header("Accept-Encoding", ACCEPT_ENCODING)
                                 .GET()
                                 .build();
 
-                String json = http.send(req, HttpResponse.BodyHandlers.ofString()).body();
+                HttpResponse<InputStream> resp = http.send(
+                                req, HttpResponse.BodyHandlers.ofInputStream());
 
-                ObjectMapper mapper = new ObjectMapper();
-                List<CatalogEntry> list = mapper.readValue(json,
-                                new TypeReference<List<CatalogEntry>>() {
-                                });
+                if (resp.statusCode() != 200) {
+                        resp.body().close();
+                        throw new IllegalStateException("Catalog fetch failed: HTTP " + resp.statusCode());
+                }
+
+                /* Jackson parses straight off the decoder – no String copy */
+                List<CatalogEntry> list;
+                try (InputStream in = decodedBody(resp)) {
+                        list = new ObjectMapper().readValue(in,
+                                        new TypeReference<List<CatalogEntry>>() {
+                                        });
+                }
 
                 return list.stream()
                                 .collect(Collectors.toMap(CatalogEntry::packageName, e -> e));
@@ -69,33 +106,46 @@ public final class StoreClient {
         /*
          * ------------------------------------------------------------------ *
          * 2 · GET /packages/<zip> – download
+         *
+         * The body is decoded, hashed and written in a single pass, so the
+         * returned SHA-256 covers the canonical (decoded) package bytes.
          * ------------------------------------------------------------------
          */
-        public static Path downloadPackage(String baseUrl,
+        public static DownloadedPackage downloadPackage(String baseUrl,
                         String packageName,
                         Path localPath) throws Exception {
 
                 HttpRequest req = HttpRequest.newBuilder()
                                 .uri(URI.create(baseUrl + "/packages/" + packageName))
                                 .timeout(Duration.ofMinutes(1))
+                                .header("Accept-Encoding", ACCEPT_ENCODING)
                                 .GET()
                                 .build();
 
                 HttpResponse<InputStream> resp = http.send(
                                 req, HttpResponse.BodyHandlers.ofInputStream());
 
-                if (resp.statusCode() != 200)
+                if (resp.statusCode() != 200) {
+                        resp.body().close();
                         throw new IllegalStateException("Download failed: HTTP " + resp.statusCode());
+                }
 
                 Files.createDirectories(localPath.getParent());
-                Files.copy(resp.body(), localPath, StandardCopyOption.REPLACE_EXISTING);
 
-                log.debug("Saved {} ({} bytes, sha={})",
+                MessageDigest md = ChecksumUtil.newSha256();
+                long bytes;
+                try (InputStream in = new DigestInputStream(decodedBody(resp), md)) {
+                        bytes = Files.copy(in, localPath, StandardCopyOption.REPLACE_EXISTING);
+                }
+                String sha = ChecksumUtil.toHex(md.digest());
+
+                log.debug("Saved {} ({} bytes, encoding={}, sha={})",
                                 localPath,
-                                Files.size(localPath),
-                                ChecksumUtil.sha256(localPath));
+                                bytes,
+                                contentEncoding(resp),
+                                sha);
 
-                return localPath;
+                return new DownloadedPackage(localPath, sha, bytes);
         }
 
         /*
@@ -119,6 +169,66 @@ public final class StoreClient {
                         throw new IllegalStateException("Upload failed: HTTP " + resp.statusCode());
         }
 
+        /*
+         * ------------------------------------------------------------------ *
+         * Content-Encoding → streaming decoder
+         * ------------------------------------------------------------------
+         */
+        private static InputStream decodedBody(HttpResponse<InputStream> resp) throws IOException {
+                return decode(resp.body(), contentEncoding(resp));
+        }
+
+        /**
+         * Wraps {@code raw} in the decoders named by a Content-Encoding value.
+         * Codings are listed in the order they were applied (RFC 9110), so
+         * they are undone right-to-left; "identity" entries are skipped.
+         */
+        static InputStream decode(InputStream raw, String contentEncoding) throws IOException {
+                List<String> codings = new ArrayList<>();
+                for (String c : contentEncoding.split(",")) {
+                        String coding = c.trim().toLowerCase(Locale.ROOT);
+                        if (coding.isEmpty() || coding.equals("identity"))
+                                continue;
+                        boolean supported = coding.equals("gzip") || coding.equals("x-gzip")
+                                        || (coding.equals("zstd") && ZSTD_AVAILABLE);
+                        if (!supported) {
+                                raw.close();
+                                throw new IllegalStateException("Unsupported content-coding '" + coding
+                                                + "' in Content-Encoding: " + contentEncoding);
+                        }
+                        codings.add(coding);
+                }
+
+                InputStream in = raw;
+                try {
+                        for (int i = codings.size() - 1; i >= 0; i--) {
+                                in = codings.get(i).equals("zstd")
+                                                ? new BufferedInputStream(new ZstdInputStream(in), 64 * 1024)
+                                                : new GZIPInputStream(in, 64 * 1024);
+                        }
+                        return in;
+                } catch (IOException | RuntimeException e) {
+                        in.close();
+                        throw e;
+                }
+        }
+
+        private static boolean zstdAvailable() {
+                try {
+                        if (!Native.isLoaded())
+                                Native.load();
+                        return true;
+                } catch (Throwable t) { // UnsatisfiedLinkError, ExceptionInInitializerError …
+                        log.warn("zstd native library unavailable – accepting gzip only ({})", t.toString());
+                        return false;
+                }
+        }
+
+        private static String contentEncoding(HttpResponse<?> resp) {
+                String joined = String.join(", ", resp.headers().allValues("Content-Encoding")).trim();
+                return joined.isEmpty() ? "identity" : joined;
+        }
+
         private StoreClient() {
         } // utility class
 }
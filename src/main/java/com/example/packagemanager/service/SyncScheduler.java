@@ -0,0 +1,249 @@
+package com.example.packagemanager.service;
+
+import com.example.packagemanager.config.Config;
+import com.example.packagemanager.db.DbAccess;
+import com.example.packagemanager.model.PackageSyncRow;
+import com.example.packagemanager.model.SyncStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Orders pending rows by urgency and feeds them to a fixed pool of workers.
+ *
+ * Rows whose syncDeadline falls within the deadline lead window go first,
+ * earliest deadline first. Everything else is ranked by an aged key:
+ * modifiedTime minus (packagePriority + clientPriority) × aging step.
+ * Priority buys a head start but the key never moves, so newer rows
+ * eventually queue behind old low-priority ones (no starvation).
+ */
+public final class SyncScheduler {
+
+  private static final Logger log = LoggerFactory.getLogger(SyncScheduler.class);
+
+  /** Per-row work, supplied by the caller. */
+  @FunctionalInterface
+  public interface RowHandler {
+    void sync(PackageSyncRow row) throws Exception;
+  }
+
+  /** Re-reads pending rows while a cycle is running. */
+  @FunctionalInterface
+  public interface RowSource {
+    List<PackageSyncRow> poll() throws Exception;
+  }
+
+  /** Runs before rows found mid-cycle are queued (e.g. re-fetch the catalog). */
+  @FunctionalInterface
+  public interface RefreshHook {
+    void beforeEnqueue(List<PackageSyncRow> fresh) throws Exception;
+  }
+
+  /* One queued row + its fixed ordering key */
+  private record Task(PackageSyncRow row, boolean nearDeadline, Instant key, long seq) {
+  }
+
+  private static final Comparator<Task> BY_URGENCY = Comparator
+      .comparing((Task t) -> !t.nearDeadline())
+      .thenComparing(Task::key)
+      .thenComparingLong(Task::seq);
+
+  private final PriorityBlockingQueue<Task> queue = new PriorityBlockingQueue<>(64, BY_URGENCY);
+  private final Map<String, OffsetDateTime> seen = new HashMap<>(); // coordinator thread only
+  private final Set<String> active = ConcurrentHashMap.newKeySet(); // queued or in flight
+  private final AtomicInteger outstanding = new AtomicInteger();
+  private final AtomicLong seq = new AtomicLong();
+  private final Object idle = new Object();
+
+  private final Duration agingStep;
+  private final Duration deadlineLead;
+  private final int workers;
+  private final long refreshMs;
+  private final Clock clock;
+  private final RowSource source;
+  private final RefreshHook hook;
+  private final Instant cycleStart;
+
+  SyncScheduler(Duration agingStep,
+      Duration deadlineLead,
+      int workers,
+      long refreshMs,
+      Clock clock,
+      RowSource source,
+      RefreshHook hook) {
+
+    this.agingStep = agingStep;
+    this.deadlineLead = deadlineLead;
+    this.workers = Math.max(1, workers);
+    this.refreshMs = refreshMs;
+    this.clock = clock;
+    this.source = source;
+    this.hook = hook;
+    this.cycleStart = clock.instant();
+  }
+
+  /*
+   * ────────────────────────────────────────────────────────────────
+   * Run one cycle – returns once every queued row has been handled
+   * ────────────────────────────────────────────────────────────────
+   */
+  public static void runCycle(List<PackageSyncRow> rows,
+      RefreshHook hook,
+      RowHandler handler) throws Exception {
+
+    new SyncScheduler(
+        Duration.ofMinutes(Config.syncAgingMinutesPerPriority()),
+        Duration.ofMinutes(Config.syncDeadlineLeadMinutes()),
+        Config.syncWorkers(),
+        Config.syncRefreshMs(),
+        Clock.systemUTC(),
+        DbAccess::getRowsNeedingSync,
+        hook).run(rows, handler);
+  }
+
+  void run(List<PackageSyncRow> rows, RowHandler handler) throws InterruptedException {
+    enqueue(rows);
+
+    ExecutorService pool = Executors.newFixedThreadPool(workers);
+    for (int i = 0; i < workers; i++)
+      pool.submit(() -> work(handler));
+
+    try {
+      /* Wait for the queue to drain, topping it up from the DB meanwhile */
+      while (outstanding.get() > 0) {
+        synchronized (idle) {
+          if (outstanding.get() > 0)
+            idle.wait(refreshMs);
+        }
+        if (outstanding.get() > 0)
+          refresh();
+      }
+    } finally {
+      pool.shutdownNow(); // workers are parked in take()
+      pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+  }
+
+  /* --------------------------------------------------------------- */
+  private void enqueue(List<PackageSyncRow> rows) {
+    Instant now = clock.instant();
+    int added = 0;
+    for (PackageSyncRow row : rows) {
+      if (!isNew(row))
+        continue;
+      seen.put(key(row), row.modifiedTime());
+      active.add(key(row));
+      outstanding.incrementAndGet();
+      queue.put(task(row, now));
+      added++;
+    }
+    if (added > 0)
+      log.debug("Queued {} row(s), {} outstanding", added, outstanding.get());
+  }
+
+  /*
+   * A row is new unless the same client/package is still queued or in
+   * flight, or this exact version (modifiedTime) was already taken this
+   * cycle. Re-pending a finished row bumps modifiedTime, so it re-queues.
+   */
+  private boolean isNew(PackageSyncRow row) {
+    String key = key(row);
+    if (active.contains(key))
+      return false;
+    return !seen.containsKey(key) || !Objects.equals(seen.get(key), row.modifiedTime());
+  }
+
+  /* Pick up rows that became pending mid-cycle (e.g. an urgent patch) */
+  private void refresh() {
+    promoteNearDeadline();
+    try {
+      List<PackageSyncRow> fresh = new ArrayList<>();
+      for (PackageSyncRow row : source.poll()) {
+        /* FAILED rows wait for the next cycle instead of retrying every refresh */
+        if (row.syncStatus() == SyncStatus.PENDING && isNew(row))
+          fresh.add(row);
+      }
+      if (fresh.isEmpty())
+        return;
+
+      hook.beforeEnqueue(fresh);
+      enqueue(fresh);
+    } catch (Exception e) {
+      log.warn("⚠️  Mid-cycle refresh failed – continuing with current queue", e);
+    }
+  }
+
+  /* Keys are fixed once queued, so rows whose lead window opened are re-queued */
+  private void promoteNearDeadline() {
+    Instant now = clock.instant();
+    for (Task t : queue.toArray(new Task[0])) {
+      if (!t.nearDeadline() && isNearDeadline(t.row(), now) && queue.remove(t))
+        queue.put(task(t.row(), now));
+    }
+  }
+
+  private Task task(PackageSyncRow row, Instant now) {
+    if (isNearDeadline(row, now))
+      return new Task(row, true, row.syncDeadline().toInstant(), seq.getAndIncrement());
+    return new Task(row, false, agedKey(row), seq.getAndIncrement());
+  }
+
+  private boolean isNearDeadline(PackageSyncRow row, Instant now) {
+    return row.syncDeadline() != null
+        && !row.syncDeadline().toInstant().minus(deadlineLead).isAfter(now);
+  }
+
+  private Instant agedKey(PackageSyncRow row) {
+    Instant base = row.modifiedTime() != null
+        ? row.modifiedTime().toInstant()
+        : cycleStart;
+    return base.minus(agingStep.multipliedBy(
+        (long) row.packagePriority() + row.clientPriority()));
+  }
+
+  private static String key(PackageSyncRow row) {
+    return row.clientId() + '|' + row.packageName();
+  }
+
+  /* --------------------------------------------------------------- */
+  private void work(RowHandler handler) {
+    try {
+      while (true) {
+        Task task = queue.take();
+        try {
+          handler.sync(task.row());
+        } catch (Throwable t) {
+          /* Errors too (e.g. a native lib failing to load) – a dead worker would hang the cycle */
+          log.error("❌ Sync of {} failed", task.row(), t);
+        } finally {
+          active.remove(key(task.row()));
+          if (outstanding.decrementAndGet() == 0) {
+            synchronized (idle) {
+              idle.notifyAll();
+            }
+          }
+        }
+      }
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt(); // cycle finished
+    }
+  }
+}
@@ -3,6 +3,7 @@ package com.example.packagemanager.util;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 /**
  * Tiny utility for computing SHA-256 checksums of files.
@@ -12,10 +13,16 @@ public final class ChecksumUtil {
   /** Returns the lowercase hex SHA-256 of the entire file. */
   public static String sha256(Path file) throws Exception {
     byte[] bytes = Files.readAllBytes(file);
-    byte[] digest = MessageDigest
-        .getInstance("SHA-256")
-        .digest(bytes);
+    return toHex(newSha256().digest(bytes));
+  }
+
+  /** Fresh SHA-256 digest, for hashing bytes as they stream past. */
+  public static MessageDigest newSha256() throws NoSuchAlgorithmException {
+    return MessageDigest.getInstance("SHA-256");
+  }
 
+  /** Lowercase hex form of a finished digest. */
+  public static String toHex(byte[] digest) {
     StringBuilder sb = new StringBuilder(digest.length * 2);
     for (byte b : digest)
       sb.append(String.format("%02x", b));
@@ -0,0 +1,168 @@
+package com.example.packagemanager.service;
+
+import com.example.packagemanager.util.ChecksumUtil;
+import com.github.luben.zstd.Zstd;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-Encoding negotiation and decode paths used by catalog fetch and
+ * package download.
+ */
+public class StoreClientTest extends TestCase
+{
+    private static final byte[] PLAIN = ("[{\"packageName\":\"BackupAgent_1.1.0.zip\"}]\n"
+            .repeat(500)).getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private String baseUrl;
+    private Path tmp;
+    private final List<String> acceptEncodings = new CopyOnWriteArrayList<>();
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        tmp = Files.createTempDirectory("store-client-test");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/packages/x", ex -> respondGzip(ex, PLAIN));
+        server.createContext("/catalog", ex -> respondGzip(ex,
+                "[{\"packageName\":\"x\",\"sha256\":\"abc\",\"version\":\"1.0.0\"}]"
+                        .getBytes(StandardCharsets.UTF_8)));
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    protected void tearDown() throws Exception
+    {
+        server.stop(0);
+        try (Stream<Path> files = Files.walk(tmp)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Over HTTP                                                           */
+    /* ------------------------------------------------------------------ */
+
+    public void testDownloadPackageNegotiatesAndDecodesGzip() throws Exception
+    {
+        StoreClient.DownloadedPackage d =
+                StoreClient.downloadPackage(baseUrl, "x", tmp.resolve("x"));
+
+        assertEquals(sha(PLAIN), d.sha256());
+        assertEquals(PLAIN.length, d.bytes());
+        assertTrue(Arrays.equals(PLAIN, Files.readAllBytes(d.path())));
+        assertEquals(1, acceptEncodings.size());
+        assertTrue(acceptEncodings.get(0), acceptEncodings.get(0).contains("gzip"));
+    }
+
+    public void testFetchCatalogNegotiatesAndDecodesGzip() throws Exception
+    {
+        Map<String, StoreClient.CatalogEntry> catalog = StoreClient.fetchCatalog(baseUrl);
+
+        assertEquals(new StoreClient.CatalogEntry("x", "abc", "1.0.0"), catalog.get("x"));
+        assertEquals(1, acceptEncodings.size());
+        assertTrue(acceptEncodings.get(0), acceptEncodings.get(0).contains("gzip"));
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* decode()                                                            */
+    /* ------------------------------------------------------------------ */
+
+    public void testIdentityPassesThrough() throws Exception
+    {
+        assertEquals(sha(PLAIN), digestDecoded(PLAIN, "identity"));
+        assertEquals(sha(PLAIN), digestDecoded(PLAIN, ""));
+    }
+
+    public void testGzipRoundTripMatchesPlainSha() throws Exception
+    {
+        assertEquals(sha(PLAIN), digestDecoded(gzip(PLAIN), "gzip"));
+        assertEquals(sha(PLAIN), digestDecoded(gzip(PLAIN), "X-GZIP"));
+    }
+
+    public void testZstdRoundTripMatchesPlainSha() throws Exception
+    {
+        assertEquals(sha(PLAIN), digestDecoded(Zstd.compress(PLAIN), "zstd"));
+    }
+
+    public void testListValuedEncodingSkipsIdentity() throws Exception
+    {
+        assertEquals(sha(PLAIN), digestDecoded(gzip(PLAIN), "gzip, identity"));
+    }
+
+    public void testStackedEncodingsDecodeRightToLeft() throws Exception
+    {
+        /* "gzip, zstd" = gzip applied first, then zstd */
+        byte[] body = Zstd.compress(gzip(PLAIN));
+        assertEquals(sha(PLAIN), digestDecoded(body, "gzip, zstd"));
+    }
+
+    public void testUnknownEncodingIsRejected() throws Exception
+    {
+        try {
+            StoreClient.decode(new ByteArrayInputStream(PLAIN), "gzip, br");
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("'br'"));
+        }
+    }
+
+    /* ------------------------------------------------------------------ */
+    private static String digestDecoded(byte[] body, String encoding) throws Exception
+    {
+        MessageDigest md = ChecksumUtil.newSha256();
+        try (InputStream in = new DigestInputStream(
+                StoreClient.decode(new ByteArrayInputStream(body), encoding), md)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return ChecksumUtil.toHex(md.digest());
+    }
+
+    private void respondGzip(HttpExchange ex, byte[] plain) throws IOException
+    {
+        acceptEncodings.add(String.valueOf(ex.getRequestHeaders().getFirst("Accept-Encoding")));
+        byte[] body = gzip(plain);
+        ex.getResponseHeaders().add("Content-Encoding", "gzip");
+        ex.sendResponseHeaders(200, body.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String sha(byte[] bytes) throws Exception
+    {
+        return ChecksumUtil.toHex(ChecksumUtil.newSha256().digest(bytes));
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
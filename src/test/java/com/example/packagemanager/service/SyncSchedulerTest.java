@@ -0,0 +1,304 @@
+package com.example.packagemanager.service;
+
+import com.example.packagemanager.model.PackageSyncRow;
+import com.example.packagemanager.model.SyncStatus;
+import junit.framework.TestCase;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ordering rule and cycle lifecycle of SyncScheduler.
+ */
+public class SyncSchedulerTest extends TestCase
+{
+    private static final Duration STEP = Duration.ofMinutes(15);
+    private static final Duration LEAD = Duration.ofMinutes(60);
+
+    private final List<String> handled = new CopyOnWriteArrayList<>();
+
+    /* ------------------------------------------------------------------ */
+    /* Ordering (one worker, no refresh → strict queue order)              */
+    /* ------------------------------------------------------------------ */
+
+    public void testPriorityGivesHeadStart() throws Exception
+    {
+        /* B is newer, but 4 points × 15 min puts its key at 10:30 */
+        runOnce(at("12:00"),
+                row("A", "11:00", 0, 0, null),
+                row("B", "11:30", 2, 2, null));
+
+        assertEquals(List.of("A|B", "A|A"), handled);
+    }
+
+    public void testAgingOvertakesPriority() throws Exception
+    {
+        /* A has waited longer than B's 60-minute head start */
+        runOnce(at("12:00"),
+                row("A", "09:00", 0, 0, null),
+                row("B", "11:30", 2, 2, null));
+
+        assertEquals(List.of("A|A", "A|B"), handled);
+    }
+
+    public void testNearDeadlineBeatsOlderRoutineRows() throws Exception
+    {
+        runOnce(at("10:20"),
+                row("OLD1", "08:00", 0, 0, null),
+                row("OLD2", "09:00", 0, 0, null),
+                row("SLA", "10:00", 0, 0, "10:30"));
+
+        assertEquals(List.of("A|SLA", "A|OLD1", "A|OLD2"), handled);
+    }
+
+    public void testNearDeadlinesRunEarliestFirst() throws Exception
+    {
+        runOnce(at("10:20"),
+                row("LATER", "08:00", 5, 5, "11:00"),
+                row("SOONER", "10:00", 0, 0, "10:30"));
+
+        assertEquals(List.of("A|SOONER", "A|LATER"), handled);
+    }
+
+    public void testFarDeadlineKeepsAgedOrder() throws Exception
+    {
+        runOnce(at("10:20"),
+                row("OLD", "08:00", 0, 0, null),
+                row("SLA", "10:00", 0, 0, "14:00"));
+
+        assertEquals(List.of("A|OLD", "A|SLA"), handled);
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Lifecycle                                                           */
+    /* ------------------------------------------------------------------ */
+
+    public void testRunReturnsWhenDrainedAndDedupesRefresh() throws Exception
+    {
+        PackageSyncRow a = row("A", "09:00", 0, 0, null);
+        PackageSyncRow b = row("B", "09:00", 0, 0, null);
+        PackageSyncRow c = row("C", "09:30", 0, 0, null);
+
+        AtomicInteger polls = new AtomicInteger();
+        CountDownLatch polledTwice = new CountDownLatch(2);
+        List<List<PackageSyncRow>> hooked = new CopyOnWriteArrayList<>();
+
+        SyncScheduler s = scheduler(4, fixed(at("12:00")),
+                () -> {
+                    polls.incrementAndGet();
+                    polledTwice.countDown();
+                    return List.of(a, b, c);
+                },
+                hooked::add);
+
+        runWithTimeout(s, List.of(a, b), row -> {
+            if (row == a)
+                polledTwice.await(5, TimeUnit.SECONDS); // keep the cycle open
+            handled.add(key(row));
+        });
+
+        List<String> sorted = new ArrayList<>(handled);
+        Collections.sort(sorted);
+        assertEquals(List.of("A|A", "A|B", "A|C"), sorted);
+        assertTrue(polls.get() >= 2);
+        assertEquals(1, hooked.size());
+        assertEquals(List.of(c), hooked.get(0));
+    }
+
+    public void testRepeatedPendingVersionIsRequeuedAfterHook() throws Exception
+    {
+        PackageSyncRow v1 = row("A", "09:00", 0, 0, null);
+        PackageSyncRow v2 = row("A", "09:45", 0, 0, null);
+        PackageSyncRow keeper = row("K", "09:00", 0, 0, null);
+        PackageSyncRow failed = row("F", "09:50", 0, 0, null, SyncStatus.FAILED);
+        List<String> events = new CopyOnWriteArrayList<>();
+        CountDownLatch v2Done = new CountDownLatch(1);
+
+        /* Once v1 has finished, A is pending again with a newer modifiedTime */
+        SyncScheduler s = scheduler(2, fixed(at("12:00")),
+                () -> events.contains("sync A 09:00")
+                        ? List.of(v2, keeper, failed)
+                        : List.of(v1, keeper),
+                fresh -> events.add("hook " + fresh.size()));
+
+        runWithTimeout(s, List.of(v1, keeper), row -> {
+            if (row == keeper) {
+                v2Done.await(5, TimeUnit.SECONDS); // keep the cycle open
+                return;
+            }
+            events.add("sync " + row.packageName() + " " + row.modifiedTime().toLocalTime());
+            if (row == v2)
+                v2Done.countDown();
+        });
+
+        assertEquals(List.of("sync A 09:00", "hook 1", "sync A 09:45"), events);
+    }
+
+    public void testHandlerErrorDoesNotKillWorker() throws Exception
+    {
+        SyncScheduler s = scheduler(1, fixed(at("12:00")), List::of, fresh -> {
+        });
+
+        runWithTimeout(s, List.of(
+                row("A", "09:00", 0, 0, null),
+                row("B", "10:00", 0, 0, null),
+                row("C", "11:00", 0, 0, null)), row -> {
+                    handled.add(key(row));
+                    throw new UnsatisfiedLinkError("no zstd in java.library.path");
+                });
+
+        assertEquals(List.of("A|A", "A|B", "A|C"), handled);
+    }
+
+    public void testQueuedRowIsPromotedWhenItsLeadWindowOpens() throws Exception
+    {
+        MutableClock clock = new MutableClock(at("10:00"));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger polls = new AtomicInteger();
+
+        PackageSyncRow blocker = row("BLOCK", "07:00", 0, 0, null);
+        PackageSyncRow routine = row("OLD", "08:00", 0, 0, null);
+        PackageSyncRow sla = row("SLA", "09:59", 0, 0, "11:30");
+
+        SyncScheduler s = scheduler(1, clock,
+                () -> {
+                    polls.incrementAndGet();
+                    return List.of();
+                },
+                fresh -> {
+                });
+
+        Thread t = new Thread(() -> {
+            try {
+                s.run(List.of(blocker, routine, sla), row -> {
+                    if (row == blocker)
+                        release.await(5, TimeUnit.SECONDS);
+                    handled.add(key(row));
+                });
+            } catch (InterruptedException ignored) {
+            }
+        });
+        t.start();
+
+        waitFor(() -> polls.get() >= 1);
+        clock.now = at("10:45"); // SLA row's 60-minute lead window is now open
+        int seen = polls.get();
+        waitFor(() -> polls.get() > seen + 1); // a full refresh after the change
+        release.countDown();
+        t.join(5000);
+
+        assertFalse("run did not return", t.isAlive());
+        assertEquals(List.of("A|BLOCK", "A|SLA", "A|OLD"), handled);
+    }
+
+    /* ------------------------------------------------------------------ */
+    private void runOnce(Instant now, PackageSyncRow... rows) throws Exception
+    {
+        SyncScheduler s = scheduler(1, fixed(now), List::of, fresh -> {
+        });
+        runWithTimeout(s, List.of(rows), row -> handled.add(key(row)));
+    }
+
+    private static void runWithTimeout(SyncScheduler s,
+            List<PackageSyncRow> rows,
+            SyncScheduler.RowHandler handler) throws Exception
+    {
+        Thread t = new Thread(() -> {
+            try {
+                s.run(rows, handler);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        t.start();
+        t.join(5000);
+        assertFalse("run did not return", t.isAlive());
+    }
+
+    private static SyncScheduler scheduler(int workers, Clock clock,
+            SyncScheduler.RowSource source, SyncScheduler.RefreshHook hook)
+    {
+        return new SyncScheduler(STEP, LEAD, workers, 5, clock, source, hook);
+    }
+
+    private static PackageSyncRow row(String pkg, String modified,
+            int packagePriority, int clientPriority, String deadline)
+    {
+        return row(pkg, modified, packagePriority, clientPriority, deadline, SyncStatus.PENDING);
+    }
+
+    private static PackageSyncRow row(String pkg, String modified,
+            int packagePriority, int clientPriority, String deadline, SyncStatus status)
+    {
+        return new PackageSyncRow("A", pkg, null, null, "1.0.0", status,
+                null, odt(modified), packagePriority, clientPriority,
+                deadline == null ? null : odt(deadline));
+    }
+
+    private static String key(PackageSyncRow row)
+    {
+        return row.clientId() + '|' + row.packageName();
+    }
+
+    private static OffsetDateTime odt(String hhmm)
+    {
+        return OffsetDateTime.parse("2026-01-01T" + hhmm + ":00Z");
+    }
+
+    private static Instant at(String hhmm)
+    {
+        return odt(hhmm).toInstant();
+    }
+
+    private static Clock fixed(Instant now)
+    {
+        return Clock.fixed(now, ZoneOffset.UTC);
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier cond) throws InterruptedException
+    {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!cond.getAsBoolean()) {
+            assertTrue("condition not reached", System.nanoTime() < end);
+            Thread.sleep(2);
+        }
+    }
+
+    private static final class MutableClock extends Clock
+    {
+        volatile Instant now;
+
+        MutableClock(Instant now)
+        {
+            this.now = now;
+        }
+
+        @Override
+        public Instant instant()
+        {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone()
+        {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone)
+        {
+            return this;
+        }
+    }
+}